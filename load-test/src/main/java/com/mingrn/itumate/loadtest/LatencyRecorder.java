@@ -0,0 +1,43 @@
+package com.mingrn.itumate.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 单个压测线程的耗时记录, 仅由所属线程写入, 线程结束后再汇总
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class LatencyRecorder {
+
+	private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+	public void record(Operation operation, long nanos) {
+		samples.computeIfAbsent(operation, key -> new Samples()).add(nanos);
+	}
+
+	public void error(Operation operation) {
+		samples.computeIfAbsent(operation, key -> new Samples()).errors++;
+	}
+
+	Samples get(Operation operation) {
+		return samples.get(operation);
+	}
+
+	/**
+	 * 可增长的耗时数组
+	 */
+	static class Samples {
+		long[] values = new long[1024];
+		int size;
+		long errors;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.mingrn.itumate.loadtest;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 压测实体
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+@Table(name = "load_entity")
+public class LoadEntity {
+
+	static final String DDL = "CREATE TABLE load_entity ("
+			+ "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+			+ "name VARCHAR(64) NOT NULL, "
+			+ "amount INT NOT NULL, "
+			+ "remark VARCHAR(255))";
+
+	@Id
+	@GeneratedValue(generator = "JDBC")
+	private Long id;
+
+	private String name;
+
+	private Integer amount;
+
+	private String remark;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getAmount() {
+		return amount;
+	}
+
+	public void setAmount(Integer amount) {
+		this.amount = amount;
+	}
+
+	public String getRemark() {
+		return remark;
+	}
+
+	public void setRemark(String remark) {
+		this.remark = remark;
+	}
+}
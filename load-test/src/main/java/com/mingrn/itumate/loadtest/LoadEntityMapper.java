@@ -0,0 +1,11 @@
+package com.mingrn.itumate.loadtest;
+
+import com.mingrn.itumate.core.Mapper;
+
+/**
+ * 压测实体 Mapper
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public interface LoadEntityMapper extends Mapper<LoadEntity> {
+}
@@ -0,0 +1,15 @@
+package com.mingrn.itumate.loadtest;
+
+import com.mingrn.itumate.core.AbstractService;
+
+/**
+ * 被压测的 Service, 不依赖 Spring 容器直接注入 Mapper
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class LoadEntityService extends AbstractService<LoadEntity, LoadEntity, Long> {
+
+	public LoadEntityService(LoadEntityMapper mapper) {
+		this.mapper = mapper;
+	}
+}
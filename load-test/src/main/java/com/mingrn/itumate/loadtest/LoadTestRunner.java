@@ -0,0 +1,189 @@
+package com.mingrn.itumate.loadtest;
+
+import com.github.pagehelper.PageHelper;
+import com.mingrn.itumate.core.Mapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import tk.mybatis.mapper.mapperhelper.MapperHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service 层并发扩展性压测
+ * <p>基于内嵌 H2 与固定大小的连接池, 按负载比例对 {@link com.mingrn.itumate.core.AbstractService}
+ * 执行混合读写, 线程数逐级增加, 每级输出吞吐量与耗时分位数。参数均通过系统属性配置:
+ * <pre>
+ *   threads   线程数列表, 默认 1,2,4,8,16,32,64,128,256
+ *   pool      连接池大小, 默认 16
+ *   rows      每个场景初始数据量, 默认 10000
+ *   warmup    预热秒数, 默认 5
+ *   duration  统计秒数, 默认 15
+ *   mix       负载比例, 默认 {@value WorkloadMix#DEFAULT}
+ *   seed      随机种子, 默认 20190810
+ *   label     报告标签, 如被测版本号, 默认 current
+ *   report    CSV 报告文件, 追加写入, 便于对比不同版本
+ * </pre>
+ * 运行示例: {@code mvn -f load-test/pom.xml exec:java -Dpool=8 -Dlabel=0.0.1 -Dreport=target/load.csv}
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class LoadTestRunner {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final int BATCH_SIZE = 50;
+
+	private final PooledDataSource dataSource;
+
+	private final Workload workload;
+
+	public LoadTestRunner(int pool) {
+		dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1", "sa", "");
+		dataSource.setPoolMaximumActiveConnections(pool);
+		dataSource.setPoolMaximumIdleConnections(pool);
+
+		Configuration configuration = new Configuration(new Environment("load-test", new JdbcTransactionFactory(), dataSource));
+		Properties properties = new Properties();
+		properties.setProperty("dialect", "h2");
+		PageHelper pageHelper = new PageHelper();
+		pageHelper.setProperties(properties);
+		configuration.addInterceptor(pageHelper);
+		configuration.addMapper(LoadEntityMapper.class);
+
+		MapperHelper mapperHelper = new MapperHelper();
+		mapperHelper.registerMapper(Mapper.class);
+		mapperHelper.processConfiguration(configuration);
+
+		SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+		// 未开启会话时每次调用 Mapper 都会独立获取连接并提交, 与 Spring 中非事务方法的行为一致
+		SqlSessionManager sqlSessionManager = SqlSessionManager.newInstance(sqlSessionFactory);
+		workload = new Workload(new LoadEntityService(sqlSessionManager.getMapper(LoadEntityMapper.class)), PAGE_SIZE, BATCH_SIZE);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int pool = Integer.getInteger("pool", 16);
+		int rows = Integer.getInteger("rows", 10000);
+		int warmup = Integer.getInteger("warmup", 5);
+		int duration = Integer.getInteger("duration", 15);
+		long seed = Long.getLong("seed", 20190810L);
+		String label = System.getProperty("label", "current");
+		String report = System.getProperty("report");
+		WorkloadMix mix = WorkloadMix.parse(System.getProperty("mix", WorkloadMix.DEFAULT));
+
+		LoadTestRunner runner = new LoadTestRunner(pool);
+		System.out.printf("label=%s, pool=%d, rows=%d, warmup=%ds, duration=%ds, mix=%s%n", label, pool, rows, warmup, duration, mix);
+		for (String threads : System.getProperty("threads", "1,2,4,8,16,32,64,128,256").split(",")) {
+			runner.reset(rows, seed);
+			ScenarioReport scenario = runner.run(Integer.parseInt(threads.trim()), mix, warmup, duration, seed);
+			System.out.println(scenario.format());
+			if (report != null) {
+				append(Paths.get(report), scenario.csv(label, mix.toString(), pool));
+			}
+		}
+		runner.dataSource.forceCloseAll();
+	}
+
+	/**
+	 * 重建数据表并初始化数据, 保证每个场景的初始状态一致
+	 */
+	public void reset(int rows, long seed) throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS load_entity");
+			statement.execute(LoadEntity.DDL);
+		}
+		workload.seed(rows, new Random(seed));
+	}
+
+	/**
+	 * 执行单个场景
+	 *
+	 * @param threads  线程数
+	 * @param mix      负载比例
+	 * @param warmup   预热秒数
+	 * @param duration 统计秒数
+	 * @param seed     随机种子
+	 * @return 场景报告
+	 */
+	public ScenarioReport run(int threads, WorkloadMix mix, int warmup, int duration, long seed) throws InterruptedException {
+		List<LatencyRecorder> recorders = new ArrayList<>(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+		long end = warmupEnd + TimeUnit.SECONDS.toNanos(duration);
+
+		for (int i = 0; i < threads; i++) {
+			LatencyRecorder recorder = new LatencyRecorder();
+			recorders.add(recorder);
+			Random random = new Random(seed + i);
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					work(mix, random, recorder, warmupEnd, end);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			}, "load-test-" + i);
+			worker.setDaemon(true);
+			worker.start();
+		}
+		start.countDown();
+		done.await();
+		return new ScenarioReport(threads, duration, mix.getOperations(), Collections.unmodifiableList(recorders));
+	}
+
+	private void work(WorkloadMix mix, Random random, LatencyRecorder recorder, long warmupEnd, long end) {
+		long now = System.nanoTime();
+		while (now < end) {
+			Operation operation = mix.next(random);
+			boolean failed = false;
+			try {
+				workload.execute(operation, random);
+			} catch (RuntimeException e) {
+				failed = true;
+			}
+			long finished = System.nanoTime();
+			if (now >= warmupEnd && finished <= end) {
+				if (failed) {
+					recorder.error(operation);
+				} else {
+					recorder.record(operation, finished - now);
+				}
+			}
+			now = finished;
+		}
+	}
+
+	private static void append(Path path, List<String> lines) throws IOException {
+		List<String> content = new ArrayList<>();
+		if (!Files.exists(path)) {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			content.add(ScenarioReport.CSV_HEADER);
+		}
+		content.addAll(lines);
+		Files.write(path, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,41 @@
+package com.mingrn.itumate.loadtest;
+
+/**
+ * 压测操作
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public enum Operation {
+	/** {@code get(PK)} */
+	GET("get"),
+	/** {@code find(OrderBy, pageSize, pageNumber)} */
+	PAGED_FIND("page"),
+	/** {@code batchInsert(List)} */
+	BATCH_INSERT("batchInsert"),
+	/** {@code update(T)} */
+	UPDATE("update"),
+	/** {@code removeByIdList(List)} */
+	REMOVE_BY_ID_LIST("removeByIdList");
+
+	/**
+	 * 负载配置中使用的名称
+	 */
+	private final String alias;
+
+	Operation(String alias) {
+		this.alias = alias;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	public static Operation of(String alias) {
+		for (Operation operation : values()) {
+			if (operation.alias.equalsIgnoreCase(alias) || operation.name().equalsIgnoreCase(alias)) {
+				return operation;
+			}
+		}
+		throw new IllegalArgumentException("unknown operation: " + alias);
+	}
+}
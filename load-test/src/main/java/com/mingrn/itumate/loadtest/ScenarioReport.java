@@ -0,0 +1,101 @@
+package com.mingrn.itumate.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 单个场景(线程数)的吞吐量与耗时分位数报告
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class ScenarioReport {
+
+	static final String CSV_HEADER = "label,mix,pool,threads,operation,count,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+	private final int threads;
+
+	private final double seconds;
+
+	private final List<Row> rows = new ArrayList<>();
+
+	public ScenarioReport(int threads, double seconds, Operation[] operations, List<LatencyRecorder> recorders) {
+		this.threads = threads;
+		this.seconds = seconds;
+		List<long[]> all = new ArrayList<>();
+		long allErrors = 0;
+		for (Operation operation : operations) {
+			List<long[]> values = new ArrayList<>();
+			long errors = 0;
+			for (LatencyRecorder recorder : recorders) {
+				LatencyRecorder.Samples samples = recorder.get(operation);
+				if (samples != null) {
+					values.add(Arrays.copyOf(samples.values, samples.size));
+					errors += samples.errors;
+				}
+			}
+			rows.add(new Row(operation.getAlias(), merge(values), errors));
+			all.addAll(values);
+			allErrors += errors;
+		}
+		rows.add(new Row("total", merge(all), allErrors));
+	}
+
+	public String format() {
+		StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+				"threads=%d%n%-16s %10s %8s %12s %10s %10s %10s %10s %10s%n",
+				threads, "operation", "count", "errors", "ops/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+		for (Row row : rows) {
+			sb.append(String.format(Locale.ROOT, "%-16s %10d %8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+					row.operation, row.latencies.length, row.errors, row.latencies.length / seconds,
+					row.percentile(0.50), row.percentile(0.90), row.percentile(0.99), row.percentile(0.999), row.percentile(1.0)));
+		}
+		return sb.toString();
+	}
+
+	public List<String> csv(String label, String mix, int pool) {
+		List<String> lines = new ArrayList<>();
+		for (Row row : rows) {
+			lines.add(String.format(Locale.ROOT, "%s,\"%s\",%d,%d,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+					label, mix, pool, threads, row.operation, row.latencies.length, row.errors, row.latencies.length / seconds,
+					row.percentile(0.50), row.percentile(0.90), row.percentile(0.99), row.percentile(0.999), row.percentile(1.0)));
+		}
+		return lines;
+	}
+
+	private static long[] merge(List<long[]> values) {
+		long[] merged = new long[values.stream().mapToInt(value -> value.length).sum()];
+		int position = 0;
+		for (long[] value : values) {
+			System.arraycopy(value, 0, merged, position, value.length);
+			position += value.length;
+		}
+		Arrays.sort(merged);
+		return merged;
+	}
+
+	private static class Row {
+		private final String operation;
+		private final long[] latencies;
+		private final long errors;
+
+		Row(String operation, long[] latencies, long errors) {
+			this.operation = operation;
+			this.latencies = latencies;
+			this.errors = errors;
+		}
+
+		/**
+		 * @param quantile 分位数, 取值 (0, 1]
+		 * @return 耗时(毫秒)
+		 */
+		double percentile(double quantile) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(quantile * latencies.length) - 1;
+			return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+		}
+	}
+}
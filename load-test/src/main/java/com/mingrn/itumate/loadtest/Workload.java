@@ -0,0 +1,96 @@
+package com.mingrn.itumate.loadtest;
+
+import com.mingrn.itumate.core.OrderBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对 Service 执行压测操作
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class Workload {
+
+	private static final OrderBy ORDER_BY_ID = new OrderBy().add("id");
+
+	private final LoadEntityService service;
+
+	private final int pageSize;
+
+	private final int batchSize;
+
+	/**
+	 * 近似的最大主键, 随机主键从 [1, maxId] 中选取, 已删除的主键按未命中处理
+	 */
+	private final AtomicLong maxId = new AtomicLong();
+
+	public Workload(LoadEntityService service, int pageSize, int batchSize) {
+		this.service = service;
+		this.pageSize = pageSize;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * 初始化数据
+	 *
+	 * @param rows   记录数
+	 * @param random 随机数
+	 */
+	public void seed(int rows, Random random) {
+		maxId.set(0);
+		for (int inserted = 0; inserted < rows; inserted += batchSize) {
+			service.batchInsert(newEntities(Math.min(batchSize, rows - inserted), random));
+		}
+		maxId.set(rows);
+	}
+
+	public void execute(Operation operation, Random random) {
+		switch (operation) {
+			case GET:
+				service.get(randomId(random));
+				break;
+			case PAGED_FIND:
+				int pages = (int) Math.max(1, maxId.get() / pageSize);
+				service.find(ORDER_BY_ID, pageSize, 1 + random.nextInt(pages));
+				break;
+			case BATCH_INSERT:
+				service.batchInsert(newEntities(batchSize, random));
+				maxId.addAndGet(batchSize);
+				break;
+			case UPDATE:
+				LoadEntity entity = new LoadEntity();
+				entity.setId(randomId(random));
+				entity.setAmount(random.nextInt(10000));
+				service.update(entity);
+				break;
+			case REMOVE_BY_ID_LIST:
+				List<Long> ids = new ArrayList<>(batchSize);
+				for (int i = 0; i < batchSize; i++) {
+					ids.add(randomId(random));
+				}
+				service.removeByIdList(ids);
+				break;
+			default:
+				throw new IllegalArgumentException("unsupported operation: " + operation);
+		}
+	}
+
+	private long randomId(Random random) {
+		return 1 + (long) (random.nextDouble() * Math.max(1, maxId.get()));
+	}
+
+	private List<LoadEntity> newEntities(int size, Random random) {
+		List<LoadEntity> entities = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			LoadEntity entity = new LoadEntity();
+			entity.setName("entity-" + random.nextInt(Integer.MAX_VALUE));
+			entity.setAmount(random.nextInt(10000));
+			entity.setRemark("load test");
+			entities.add(entity);
+		}
+		return entities;
+	}
+}
@@ -0,0 +1,89 @@
+package com.mingrn.itumate.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 负载比例
+ * <p>格式为 {@code 操作=权重} 并以逗号分隔, 例如 {@code get=60,page=20,batchInsert=5,update=10,removeByIdList=5}。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public final class WorkloadMix {
+
+	/**
+	 * 默认负载比例
+	 */
+	public static final String DEFAULT = "get=60,page=20,batchInsert=5,update=10,removeByIdList=5";
+
+	private final Map<Operation, Integer> weights;
+
+	private final Operation[] operations;
+
+	private final int[] cumulative;
+
+	private final int total;
+
+	private WorkloadMix(Map<Operation, Integer> weights) {
+		this.weights = weights;
+		this.operations = weights.keySet().toArray(new Operation[0]);
+		this.cumulative = new int[operations.length];
+		int sum = 0;
+		for (int i = 0; i < operations.length; i++) {
+			sum += weights.get(operations[i]);
+			cumulative[i] = sum;
+		}
+		this.total = sum;
+	}
+
+	public static WorkloadMix parse(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String item : mix.split(",")) {
+			String[] pair = item.trim().split("=");
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("illegal workload mix: " + mix);
+			}
+			int weight = Integer.parseInt(pair[1].trim());
+			if (weight > 0) {
+				weights.put(Operation.of(pair[0].trim()), weight);
+			}
+		}
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("empty workload mix: " + mix);
+		}
+		return new WorkloadMix(weights);
+	}
+
+	/**
+	 * 按权重随机选择操作
+	 *
+	 * @param random 线程私有的随机数
+	 * @return operation
+	 */
+	public Operation next(Random random) {
+		int value = random.nextInt(total);
+		for (int i = 0; i < cumulative.length; i++) {
+			if (value < cumulative[i]) {
+				return operations[i];
+			}
+		}
+		return operations[operations.length - 1];
+	}
+
+	public Operation[] getOperations() {
+		return operations.clone();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(entry.getKey().getAlias()).append('=').append(entry.getValue());
+		}
+		return sb.toString();
+	}
+}
@@ -2,18 +2,31 @@ package com.mingrn.itumate.core;
 
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.github.pagehelper.SqlUtil;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.mingrn.itumate.exception.ServiceException;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.springframework.beans.factory.annotation.Autowired;
 import tk.mybatis.mapper.entity.Condition;
+import tk.mybatis.mapper.entity.EntityColumn;
+import tk.mybatis.mapper.entity.Example;
+import tk.mybatis.mapper.mapperhelper.EntityHelper;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +44,31 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 	 */
 	private Class<T> domainClass;
 
+	/**
+	 * 相同查询合并执行, 为 null 时不合并
+	 */
+	private SingleFlight singleFlight;
+
+	/**
+	 * 通过本类读取的实体快照, 以实体对象本身(弱引用)为 key, 为 null 时不跟踪
+	 */
+	private Map<T, Map<String, Object>> snapshots;
+
+	/**
+	 * 按操作分类的并发隔离, 为 null 时不限制
+	 */
+	private Bulkheads bulkheads;
+
+	/**
+	 * 分页查询下一页预读, 为 null 时不预读
+	 */
+	private PagePrefetcher prefetcher;
+
+	/**
+	 * 全表内存副本, 为 null 时不开启
+	 */
+	private ReplicatedTable<T> replicatedTable;
+
 	@SuppressWarnings("unchecked")
 	public AbstractService() {
 		ParameterizedType parameterizedType = (ParameterizedType) this.getClass().getGenericSuperclass();
@@ -40,22 +78,141 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 	@Override
 	public void insert(T entity) {
 		mapper.insertSelective(entity);
+		afterWrite();
 	}
 
 	@Override
 	public void batchInsert(List<T> entities) {
-		mapper.insertList(entities);
+		guard(OperationType.BULK_WRITE, () -> mapper.insertList(entities));
+		afterWrite();
+	}
+
+	/**
+	 * 开启相同查询合并执行, 同一时刻参数相同的 {@link #get(Serializable)} 与
+	 * {@link #findByCondition(Condition)} 只执行一次查询
+	 * <p>合并的 key 包含实体类型, 同一个 {@link SingleFlight} 可以由多个 Service 共享。
+	 * 处于事务中、当前线程已调用 {@code PageHelper.startPage} 时不合并;
+	 * 开启脏数据跟踪时 {@link #get(Serializable)} 不合并, 保证每个调用方拿到独立的实体。
+	 * 等待他人结果的调用方拿到实体及列表的副本, 修改结果不会影响其他调用方。
+	 *
+	 * @param singleFlight 为 null 时关闭
+	 */
+	public void setSingleFlight(SingleFlight singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
+	/**
+	 * 开启脏数据跟踪
+	 * <p>开启后通过 {@link #get(Serializable)}、{@link #findBy(String, Object)}、{@link #findByIds(String)}
+	 * 读取的实体会保存一份快照, {@link #update(Object)} 时只更新与快照相比发生变化的非 null 字段,
+	 * 没有变化时不访问数据库并返回 0。基本类型的成员变量无法置空, 总是以当前值一并更新。
+	 * 快照为浅拷贝, 对 Date 等可变对象的原地修改无法识别。
+	 *
+	 * @param dirtyTracking 是否开启
+	 */
+	public void setDirtyTracking(boolean dirtyTracking) {
+		this.snapshots = dirtyTracking ? new MapMaker().weakKeys().makeMap() : null;
+	}
+
+	/**
+	 * 开启按操作分类的并发隔离, 单条记录的写操作不受限制
+	 *
+	 * @param bulkheads 为 null 时关闭
+	 * @see OperationType
+	 */
+	public void setBulkheads(Bulkheads bulkheads) {
+		this.bulkheads = bulkheads;
+	}
+
+	/**
+	 * @return 按操作分类的并发隔离, 未开启时为 null
+	 */
+	public Bulkheads getBulkheads() {
+		return bulkheads;
+	}
+
+	/**
+	 * 开启分页查询下一页预读
+	 * <p>开启后 {@link #findByCondition(Condition, OrderBy, int, int)} 返回第 N 页后会在后台查询第 N + 1 页,
+	 * 通过本类执行的写操作会丢弃本实体的预读结果。处于事务中或条件为 FOR UPDATE 时不预读也不使用预读结果。
+	 *
+	 * @param prefetcher 为 null 时关闭
+	 */
+	public void setPrefetcher(PagePrefetcher prefetcher) {
+		this.prefetcher = prefetcher;
+	}
+
+	/**
+	 * 开启全表内存副本
+	 * <p>开启后 {@link #get(Serializable)}、{@link #find()}、{@link #count()} 以及按已建立索引的成员变量
+	 * 调用 {@link #findBy(String, Object)} 均从内存快照读取, 通过本类执行的写操作提交后会同步全量加载一次。
+	 * 处于事务中时不使用内存快照, 保证能读到本事务的写入。
+	 * {@link #get(Serializable)} 与 {@link #findBy(String, Object)} 返回实体的副本, 可以修改后更新;
+	 * {@link #find()} 返回可修改的列表, 但其中的实体与快照共享, 不能修改。
+	 *
+	 * @param replicatedTable 为 null 时关闭
+	 */
+	public void setReplicatedTable(ReplicatedTable<T> replicatedTable) {
+		if (this.replicatedTable != null) {
+			this.replicatedTable.stop();
+		}
+		if (replicatedTable != null) {
+			replicatedTable.bind(new ReplicatedTable.Source<T>() {
+				@Override
+				public List<T> loadAll() {
+					return guard(OperationType.FULL_SCAN, () -> mapper.selectAll());
+				}
+
+				@Override
+				public List<T> loadSince(String watermarkProperty, Object watermark) {
+					Condition condition = new Condition(domainClass);
+					condition.createCriteria().andGreaterThanOrEqualTo(watermarkProperty, watermark);
+					return guard(OperationType.FULL_SCAN, () -> mapper.selectByCondition(condition));
+				}
+
+				@Override
+				public String pkProperty() {
+					return pkColumn().getProperty();
+				}
+
+				@Override
+				public Object read(T model, String property) {
+					return readProperty(model, property);
+				}
+
+				@Override
+				public boolean sameRow(T a, T b) {
+					return snapshot(a).equals(snapshot(b));
+				}
+			});
+		}
+		this.replicatedTable = replicatedTable;
+	}
+
+	/**
+	 * @return 全表内存副本, 未开启时为 null
+	 */
+	public ReplicatedTable<T> getReplicatedTable() {
+		return replicatedTable;
 	}
 
 	@Override
 	public T get(PK id) {
-		return mapper.selectByPrimaryKey(id);
+		if (replicated()) {
+			return track(copyOf(replicatedTable.get(id)));
+		}
+		if (!coalescing() || snapshots != null) {
+			return track(guard(OperationType.POINT_LOOKUP, () -> mapper.selectByPrimaryKey(id)));
+		}
+		return singleFlight.execute(Arrays.asList(domainClass, "get", id),
+				() -> guard(OperationType.POINT_LOOKUP, () -> mapper.selectByPrimaryKey(id)), this::copyOf);
 	}
 
 
 	@Override
 	public void remove(PK id) {
 		mapper.deleteByPrimaryKey(id);
+		afterWrite();
 	}
 
 	@Override
@@ -63,7 +220,8 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 		if (condition == null) {
 			throw new ServiceException("the condition is null when deleting the records!");
 		}
-		mapper.delete(condition);
+		guard(OperationType.BULK_WRITE, () -> mapper.delete(condition));
+		afterWrite();
 	}
 
 	@Override
@@ -71,7 +229,16 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 		if (condition == null) {
 			throw new ServiceException("the condition is null when deleting the records!");
 		}
-		mapper.deleteByCondition(condition);
+		guard(OperationType.BULK_WRITE, () -> mapper.deleteByCondition(condition));
+		afterWrite();
+	}
+
+	@Override
+	public long remove(Condition condition, ChunkedOperation operation) {
+		if (condition == null) {
+			throw new ServiceException("the condition is null when deleting the records!");
+		}
+		return executeInChunks(condition, operation, mapper::deleteByCondition);
 	}
 
 	@Override
@@ -84,12 +251,42 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 	@Override
 	public void removeByIdList(List<PK> idList) {
 		List<String> ids = idList.stream().map(o -> "'" + o + "'").collect(Collectors.toList());
-		mapper.deleteByIds(String.join(",", ids));
+		guard(OperationType.BULK_WRITE, () -> mapper.deleteByIds(String.join(",", ids)));
+		afterWrite();
 	}
 
 	@Override
 	public int update(T model) {
-		return mapper.updateByPrimaryKeySelective(model);
+		Map<String, Object> snapshot = snapshots == null ? null : snapshots.get(model);
+		EntityColumn pk = snapshot == null ? null : pkColumn();
+		Object id = pk == null ? null : readProperty(model, pk.getProperty());
+		// 未跟踪或主键已变化时, 快照不能代表目标记录的状态, 按原方式更新所有非 null 字段
+		if (snapshot == null || id == null || !id.equals(snapshot.get(pk.getProperty()))) {
+			return updateSelective(model);
+		}
+
+		// 从副本中置空未变化的成员变量, 基本类型无法置空, 保留实体当前的值而不是默认值
+		T changes = copyOf(model);
+		boolean dirty = false;
+		for (Map.Entry<String, Object> entry : snapshot(model).entrySet()) {
+			String property = entry.getKey();
+			Object value = entry.getValue();
+			if (property.equals(pk.getProperty())) {
+				continue;
+			}
+			if (value != null && !value.equals(snapshot.get(property))) {
+				dirty = true;
+			} else if (!isPrimitive(property)) {
+				writeProperty(changes, property, null);
+			}
+		}
+		if (!dirty) {
+			return 0;
+		}
+		int rows = mapper.updateByPrimaryKeySelective(changes);
+		afterWrite();
+		track(model);
+		return rows;
 	}
 
 	@Override
@@ -98,7 +295,7 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 			Field field = domainClass.getDeclaredField("id");
 			field.setAccessible(true);
 			field.set(model, id);
-			mapper.updateByPrimaryKeySelective(model);
+			updateSelective(model);
 		} catch (NoSuchFieldException | IllegalAccessException e) {
 			throw new ServiceException(e);
 		}
@@ -109,18 +306,34 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 		if (condition == null) {
 			throw new ServiceException("the condition is null when updating the records!");
 		}
-		mapper.updateByConditionSelective(model, condition);
+		guard(OperationType.BULK_WRITE, () -> mapper.updateByConditionSelective(model, condition));
+		afterWrite();
+	}
+
+	@Override
+	public long update(T model, Condition condition, ChunkedOperation operation) {
+		if (condition == null) {
+			throw new ServiceException("the condition is null when updating the records!");
+		}
+		return executeInChunks(condition, operation, chunk -> mapper.updateByConditionSelective(model, chunk));
 	}
 
 
 	@Override
 	public T findBy(String fieldName, Object value) throws TooManyResultsException {
+		if (replicated() && value != null && replicatedTable.isIndexed(fieldName)) {
+			List<T> list = replicatedTable.find(fieldName, value);
+			if (list.size() > 1) {
+				throw new TooManyResultsException("Expected one result (or null) to be returned by findBy(), but found: " + list.size());
+			}
+			return list.isEmpty() ? null : track(copyOf(list.get(0)));
+		}
 		try {
 			T model = domainClass.newInstance();
 			Field field = domainClass.getDeclaredField(fieldName);
 			field.setAccessible(true);
 			field.set(model, value);
-			return mapper.selectOne(model);
+			return track(guard(OperationType.POINT_LOOKUP, () -> mapper.selectOne(model)));
 		} catch (ReflectiveOperationException e) {
 			throw new ServiceException(e.getMessage(), e);
 		}
@@ -128,47 +341,142 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 
 	@Override
 	public List<T> findByIds(String ids) {
-		return mapper.selectByIds(ids);
+		List<T> list = guard(OperationType.POINT_LOOKUP, () -> mapper.selectByIds(ids));
+		if (snapshots != null) {
+			list.forEach(this::track);
+		}
+		return list;
 	}
 
 	@Override
 	public int count() {
-		return mapper.selectCount(null);
+		if (replicated()) {
+			return replicatedTable.size();
+		}
+		return guard(OperationType.COUNT, () -> mapper.selectCount(null));
 	}
 
 	@Override
 	public int count(String column) {
 		Condition condition = new Condition(domainClass);
 		condition.setCountProperty(column);
-		return mapper.selectCountByCondition(condition);
+		return guard(OperationType.COUNT, () -> mapper.selectCountByCondition(condition));
 	}
 
 	@Override
 	public int count(T condition) {
-		return mapper.selectCount(condition);
+		return guard(OperationType.COUNT, () -> mapper.selectCount(condition));
 	}
 
 	@Override
 	public int count(Condition condition) {
-		return mapper.selectCountByCondition(condition);
+		return guard(OperationType.COUNT, () -> mapper.selectCountByCondition(condition));
+	}
+
+	@Override
+	public boolean exists(Condition condition) {
+		Condition query = condition == null ? new Condition(domainClass) : copyCondition(condition);
+		query.selectProperties(pkColumn().getProperty());
+		query.setOrderByClause(null);
+		return guard(OperationType.COUNT, () -> {
+			PageHelper.startPage(1, 1, false);
+			return !mapper.selectByCondition(query).isEmpty();
+		});
+	}
+
+	@Override
+	public T findFirst(Condition condition, OrderBy orderBy) {
+		Condition query = condition == null ? new Condition(domainClass) : copyCondition(condition);
+		if (orderBy != null) {
+			query.setOrderByClause(orderBy.toString());
+		}
+		// 任意条件加排序可能需要全表排序, 按 LIMIT 查询归入分页查询
+		List<T> list = guard(OperationType.PAGED_SCAN, () -> {
+			PageHelper.startPage(1, 1, false);
+			return mapper.selectByCondition(query);
+		});
+		return list.isEmpty() ? null : list.get(0);
+	}
+
+	@Override
+	public BigDecimal sum(String column, Condition condition) {
+		return toBigDecimal(aggregate("SUM", column, condition));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V> V min(String column, Condition condition) {
+		return (V) aggregate("MIN", column, condition);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V> V max(String column, Condition condition) {
+		return (V) aggregate("MAX", column, condition);
+	}
+
+	@Override
+	public BigDecimal avg(String column, Condition condition) {
+		return toBigDecimal(aggregate("AVG", column, condition));
+	}
+
+	@Override
+	public Map<Object, Long> countGroupBy(String column, Condition condition) {
+		String groupColumn = columnOf(column);
+		Condition query = condition == null ? new Condition(domainClass) : condition;
+		List<Map<String, Object>> rows = guard(OperationType.COUNT, () -> mapper.selectCountGroupByCondition(groupColumn, query));
+		Map<Object, Long> groups = new LinkedHashMap<>();
+		for (Map<String, Object> row : rows) {
+			Object key = null;
+			long count = 0;
+			// 不同数据库返回的列名大小写不同
+			for (Map.Entry<String, Object> entry : row.entrySet()) {
+				if ("group_key".equalsIgnoreCase(entry.getKey())) {
+					key = entry.getValue();
+				} else if ("group_count".equalsIgnoreCase(entry.getKey())) {
+					count = ((Number) entry.getValue()).longValue();
+				}
+			}
+			groups.put(key, count);
+		}
+		return groups;
 	}
 
 	@Override
 	public List<T> findByCondition(Condition condition) {
-		return mapper.selectByCondition(condition);
+		if (!coalescing() || condition == null) {
+			return guard(OperationType.FULL_SCAN, () -> mapper.selectByCondition(condition));
+		}
+		return singleFlight.execute(new ConditionKey(condition),
+				() -> guard(OperationType.FULL_SCAN, () -> mapper.selectByCondition(condition)), this::copyOfList);
 	}
 
 	@Override
 	public PageInfo<T> findByCondition(Condition condition, OrderBy orderBy, int pageSize, int pageNumber) {
+		Condition query = condition;
 		if (orderBy != null) {
-			condition = condition == null ? (new Condition(domainClass)) : condition;
-			condition.setOrderByClause(orderBy.toString());
+			query = query == null ? (new Condition(domainClass)) : query;
+			query.setOrderByClause(orderBy.toString());
 		}
-		if (pageSize > 0 && pageNumber >= 0) {
-			PageHelper.startPage(pageNumber, pageSize);
+		// 事务中的查询需要读到本事务的写入, FOR UPDATE 需要由调用方加锁, 均不能使用后台线程的查询结果
+		if (prefetcher == null || pageSize <= 0 || pageNumber <= 0 || Transactions.isActive()
+				|| (query != null && query.isForUpdate())) {
+			return selectPage(query, pageSize, pageNumber);
+		}
+
+		// 预读器可能由多个 Service 共享, key 中始终包含实体类型
+		PageInfo<T> page = prefetcher.take(domainClass, new ConditionKey(query, domainClass, pageSize, pageNumber));
+		if (page == null) {
+			page = selectPage(query, pageSize, pageNumber);
+		}
+		// 指定了查询列的条件无法完整复制, 不预读
+		if (page.isHasNextPage() && (query == null || query.getSelectColumns() == null || query.getSelectColumns().isEmpty())) {
+			// 后台线程使用条件副本, 调用方之后修改条件不影响预读结果
+			Condition next = query == null ? null : copyCondition(query);
+			prefetcher.prefetch(domainClass, new ConditionKey(query, domainClass, pageSize, pageNumber + 1),
+					() -> prefetchPage(next, pageSize, pageNumber + 1));
 		}
-		List<T> list = mapper.selectByCondition(condition);
-		return new PageInfo<>(list);
+		return page;
 	}
 
 
@@ -189,19 +497,402 @@ public abstract class AbstractService<T, DTO extends T, PK extends Serializable>
 
 	@Override
 	public List<T> find(T condition) {
-		return mapper.select(condition);
+		return guard(OperationType.FULL_SCAN, () -> mapper.select(condition));
 	}
 
 	@Override
 	public List<T> find() {
-		return mapper.selectAll();
+		if (replicated()) {
+			return new ArrayList<>(replicatedTable.findAll());
+		}
+		return guard(OperationType.FULL_SCAN, () -> mapper.selectAll());
 	}
 
 	@Override
 	public List<T> find(OrderBy orderBy) {
 		Condition condition = new Condition(domainClass);
 		condition.setOrderByClause(orderBy.toString());
-		return mapper.selectByCondition(condition);
+		return guard(OperationType.FULL_SCAN, () -> mapper.selectByCondition(condition));
+	}
+
+	/**
+	 * 按主键范围分块执行
+	 * <p>每块先按主键升序查出最多 chunkSize 个主键, 再以 "原条件 AND 主键 IN (...)" 执行操作,
+	 * 下一块从上一块最大主键之后继续, 避免更新后仍满足条件的记录被重复处理。
+	 * 每块依赖自动提交成为独立的短事务, 因此不允许在事务中调用。
+	 *
+	 * @param condition 原条件
+	 * @param operation 分块配置及进度
+	 * @param action    对每块执行的删除或更新
+	 * @return 本次累计影响的记录数
+	 */
+	private long executeInChunks(Condition condition, ChunkedOperation operation, Function<Condition, Integer> action) {
+		if (Transactions.isActive()) {
+			throw new ServiceException("the chunked operation must not run inside a transaction!");
+		}
+		operation.start();
+		EntityColumn pk = pkColumn();
+		Object lastId = null;
+		while (!operation.isCancelled()) {
+			Object from = lastId;
+			Condition select = copyCondition(condition, criteria -> {
+				if (from != null) {
+					criteria.andGreaterThan(pk.getProperty(), from);
+				}
+			});
+			select.selectProperties(pk.getProperty());
+			select.setOrderByClause(pk.getColumn() + " ASC");
+			List<T> rows = guard(OperationType.BULK_WRITE, () -> {
+				PageHelper.startPage(1, operation.getChunkSize(), false);
+				List<T> keys = mapper.selectByCondition(select);
+				if (!keys.isEmpty()) {
+					List<Object> ids = keys.stream().map(row -> readProperty(row, pk.getProperty())).collect(Collectors.toList());
+					operation.completeChunk(action.apply(copyCondition(condition, criteria -> criteria.andIn(pk.getProperty(), ids))));
+				}
+				return keys;
+			});
+			if (rows.isEmpty()) {
+				break;
+			}
+			lastId = readProperty(rows.get(rows.size() - 1), pk.getProperty());
+
+			afterWrite();
+			if (rows.size() < operation.getChunkSize() || !operation.pause()) {
+				break;
+			}
+		}
+		return operation.getAffectedRows();
+	}
+
+	/**
+	 * 在数据库中计算聚合值
+	 *
+	 * @param function  聚合函数
+	 * @param column    成员变量名称
+	 * @param condition 条件
+	 * @return 聚合值
+	 */
+	private Object aggregate(String function, String column, Condition condition) {
+		String aggregate = function + "(" + columnOf(column) + ")";
+		Condition query = condition == null ? new Condition(domainClass) : condition;
+		return guard(OperationType.COUNT, () -> mapper.selectAggregateByCondition(aggregate, query));
+	}
+
+	/**
+	 * 成员变量对应的列名, 聚合 SQL 直接拼接列名, 只允许实体中存在的列
+	 *
+	 * @param property 成员变量名称
+	 * @return 列名
+	 */
+	private String columnOf(String property) {
+		for (EntityColumn column : EntityHelper.getColumns(domainClass)) {
+			if (column.getProperty().equals(property)) {
+				return column.getColumn();
+			}
+		}
+		throw new ServiceException("the property " + property + " is not a column of " + domainClass.getName() + "!");
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		if (value == null || value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		return new BigDecimal(value.toString());
+	}
+
+	/**
+	 * 复制条件中的查询条件、排序、去重及 FOR UPDATE
+	 *
+	 * @param condition 原条件
+	 * @return 新条件
+	 */
+	private Condition copyCondition(Condition condition) {
+		Condition copy = copyCondition(condition, criteria -> {
+		});
+		copy.setOrderByClause(condition.getOrderByClause());
+		copy.setDistinct(condition.isDistinct());
+		copy.setForUpdate(condition.isForUpdate());
+		return copy;
+	}
+
+	/**
+	 * 复制条件中的查询条件及动态表名, 并对每一组条件追加额外的 AND 条件
+	 * <p>每一组条件保留原来与前一组的连接方式({@code and()} 或 {@code or()}), 追加的条件在组内,
+	 * 不改变原条件匹配的记录范围。
+	 *
+	 * @param condition 原条件
+	 * @param extra     追加的条件
+	 * @return 新条件
+	 */
+	private Condition copyCondition(Condition condition, Consumer<Example.Criteria> extra) {
+		Condition copy = new Condition(domainClass);
+		copy.setTableName(condition.getDynamicTableName());
+		List<Example.Criteria> oredCriteria = condition.getOredCriteria().stream()
+				.filter(Example.Criteria::isValid).collect(Collectors.toList());
+		if (oredCriteria.isEmpty()) {
+			extra.accept(copy.createCriteria());
+			return copy;
+		}
+		for (Example.Criteria criteria : oredCriteria) {
+			Example.Criteria target = copy.or();
+			target.setAndOr(criteria.getAndOr());
+			target.getCriteria().addAll(criteria.getCriteria());
+			extra.accept(target);
+		}
+		return copy;
+	}
+
+	/**
+	 * 执行分页查询, 分页参数无效时查询全部
+	 *
+	 * @param condition  已设置排序的条件
+	 * @param pageSize   每页数量
+	 * @param pageNumber 页码
+	 * @return pageInfo
+	 */
+	private PageInfo<T> selectPage(Condition condition, int pageSize, int pageNumber) {
+		if (pageSize <= 0 || pageNumber < 0) {
+			return new PageInfo<>(guard(OperationType.FULL_SCAN, () -> mapper.selectByCondition(condition)));
+		}
+		return guard(OperationType.PAGED_SCAN, () -> {
+			PageHelper.startPage(pageNumber, pageSize);
+			return new PageInfo<>(mapper.selectByCondition(condition));
+		});
+	}
+
+	/**
+	 * 后台预读分页, 分页查询的并发已满时放弃预读
+	 *
+	 * @param condition  条件副本
+	 * @param pageSize   每页数量
+	 * @param pageNumber 页码
+	 * @return pageInfo, 放弃预读时为 null
+	 */
+	private PageInfo<?> prefetchPage(Condition condition, int pageSize, int pageNumber) {
+		Supplier<PageInfo<?>> loader = () -> {
+			PageHelper.startPage(pageNumber, pageSize);
+			return new PageInfo<>(mapper.selectByCondition(condition));
+		};
+		Bulkhead bulkhead = bulkheads == null ? null : bulkheads.get(OperationType.PAGED_SCAN);
+		return bulkhead == null ? loader.get() : bulkhead.tryExecute(loader);
+	}
+
+	/**
+	 * 写操作完成后丢弃预读结果, 并在提交后同步重新加载全表内存副本
+	 * <p>处于事务中时, 其他连接在提交前仍读到旧数据, 因此提交后再执行一次;
+	 * 预读结果同时立即丢弃, 避免在提交前被使用。内存副本在写线程上加载, 写线程随后的读取能看到本次写入。
+	 */
+	private void afterWrite() {
+		if (prefetcher != null) {
+			prefetcher.invalidate(domainClass);
+		}
+		if (prefetcher == null && replicatedTable == null) {
+			return;
+		}
+		PagePrefetcher writePrefetcher = prefetcher;
+		ReplicatedTable<T> writeTable = replicatedTable;
+		Transactions.afterCommit(() -> {
+			if (writePrefetcher != null) {
+				writePrefetcher.invalidate(domainClass);
+			}
+			if (writeTable != null) {
+				writeTable.reloadAfterWrite();
+			}
+		});
+	}
+
+	/**
+	 * 当前调用是否从全量内存副本读取
+	 * <p>事务中的查询需要读到本事务尚未提交的写入, 因此直接查询数据库。
+	 *
+	 * @return 是否从内存副本读取
+	 */
+	private boolean replicated() {
+		return replicatedTable != null && !Transactions.isActive();
+	}
+
+	/**
+	 * 当前调用是否可以合并执行
+	 * <p>事务中的查询需要读到本事务的写入, 已设置分页的查询结果依赖本线程的分页参数, 均不能共享他人的结果。
+	 *
+	 * @return 是否合并
+	 */
+	private boolean coalescing() {
+		return singleFlight != null && SqlUtil.getLocalPage() == null && !Transactions.isActive();
+	}
+
+	/**
+	 * 在对应分类的并发限制内执行
+	 *
+	 * @param type     操作分类
+	 * @param supplier 操作
+	 * @return 操作结果
+	 */
+	private <R> R guard(OperationType type, Supplier<R> supplier) {
+		return bulkheads == null ? supplier.get() : bulkheads.execute(type, supplier);
+	}
+
+	/**
+	 * 更新所有非 null 字段, 已跟踪的实体同时刷新快照
+	 *
+	 * @param model 实体
+	 * @return 影响的记录数
+	 */
+	private int updateSelective(T model) {
+		int rows = mapper.updateByPrimaryKeySelective(model);
+		afterWrite();
+		if (snapshots != null && snapshots.containsKey(model)) {
+			track(model);
+		}
+		return rows;
+	}
+
+	/**
+	 * 开启脏数据跟踪时保存实体快照
+	 *
+	 * @param model 实体
+	 * @return model
+	 */
+	private T track(T model) {
+		if (snapshots != null && model != null) {
+			snapshots.put(model, snapshot(model));
+		}
+		return model;
+	}
+
+	/**
+	 * 实体所有列对应成员变量的值
+	 *
+	 * @param model 实体
+	 * @return 以成员变量名称为 key 的值
+	 */
+	private Map<String, Object> snapshot(T model) {
+		Map<String, Object> snapshot = Maps.newHashMap();
+		for (EntityColumn column : EntityHelper.getColumns(domainClass)) {
+			snapshot.put(column.getProperty(), readProperty(model, column.getProperty()));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * 浅拷贝实体
+	 *
+	 * @param model 实体
+	 * @return 副本, model 为 null 时返回 null
+	 */
+	private T copyOf(T model) {
+		if (model == null) {
+			return null;
+		}
+		T copy = newInstance();
+		try {
+			for (Class<?> type = domainClass; type != null && type != Object.class; type = type.getSuperclass()) {
+				for (Field field : type.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+						field.setAccessible(true);
+						field.set(copy, field.get(model));
+					}
+				}
+			}
+		} catch (IllegalAccessException e) {
+			throw new ServiceException(e.getMessage(), e);
+		}
+		return copy;
+	}
+
+	/**
+	 * 复制列表及其中的实体
+	 *
+	 * @param list 列表
+	 * @return 可修改的副本, list 为 null 时返回 null
+	 */
+	private List<T> copyOfList(List<T> list) {
+		return list == null ? null : list.stream().map(this::copyOf).collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	private T newInstance() {
+		try {
+			return domainClass.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new ServiceException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 获取唯一主键列
+	 *
+	 * @return 主键列
+	 */
+	private EntityColumn pkColumn() {
+		Set<EntityColumn> pkColumns = EntityHelper.getPKColumns(domainClass);
+		if (pkColumns.size() != 1) {
+			throw new ServiceException("the entity " + domainClass.getName() + " must have exactly one primary key!");
+		}
+		return pkColumns.iterator().next();
+	}
+
+	/**
+	 * 通过反射读取成员变量的值
+	 *
+	 * @param model    实体
+	 * @param property 成员变量名称
+	 * @return 成员变量的值
+	 */
+	private Object readProperty(T model, String property) {
+		try {
+			return findField(property).get(model);
+		} catch (ReflectiveOperationException e) {
+			throw new ServiceException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 通过反射设置成员变量的值
+	 *
+	 * @param model    实体
+	 * @param property 成员变量名称
+	 * @param value    值
+	 */
+	private void writeProperty(T model, String property, Object value) {
+		try {
+			findField(property).set(model, value);
+		} catch (ReflectiveOperationException e) {
+			throw new ServiceException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 成员变量是否为基本类型
+	 *
+	 * @param property 成员变量名称
+	 * @return 是否为基本类型
+	 */
+	private boolean isPrimitive(String property) {
+		try {
+			return findField(property).getType().isPrimitive();
+		} catch (NoSuchFieldException e) {
+			throw new ServiceException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 查找成员变量, 包括父类中声明的成员变量
+	 *
+	 * @param property 成员变量名称
+	 * @return field
+	 * @throws NoSuchFieldException 成员变量不存在
+	 */
+	private Field findField(String property) throws NoSuchFieldException {
+		for (Class<?> type = domainClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(property);
+				field.setAccessible(true);
+				return field;
+			} catch (NoSuchFieldException ignored) {
+				// 继续查找父类
+			}
+		}
+		throw new NoSuchFieldException(property);
 	}
 
 	protected void setMybatisPageParams(int pageSize, int pageNumber, Map<String, Object> params) {
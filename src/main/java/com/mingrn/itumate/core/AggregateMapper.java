@@ -0,0 +1,35 @@
+package com.mingrn.itumate.core;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.SelectProvider;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按条件聚合的通用 Mapper 接口
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public interface AggregateMapper<T> {
+
+	/**
+	 * 按条件计算聚合值
+	 *
+	 * @param aggregate 聚合表达式, 如 SUM(amount), 由调用方保证列名合法
+	 * @param condition 条件
+	 * @return 聚合值, 无记录时为 null
+	 */
+	@SelectProvider(type = AggregateProvider.class, method = "dynamicSQL")
+	Object selectAggregateByCondition(@Param("aggregate") String aggregate, @Param("example") Object condition);
+
+	/**
+	 * 按条件分组计数
+	 *
+	 * @param column    分组列, 由调用方保证列名合法
+	 * @param condition 条件
+	 * @return 每组一行, 包含 group_key 与 group_count 两列
+	 */
+	@SelectProvider(type = AggregateProvider.class, method = "dynamicSQL")
+	List<Map<String, Object>> selectCountGroupByCondition(@Param("column") String column, @Param("example") Object condition);
+}
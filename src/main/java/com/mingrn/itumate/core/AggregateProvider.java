@@ -0,0 +1,45 @@
+package com.mingrn.itumate.core;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import tk.mybatis.mapper.mapperhelper.MapperHelper;
+import tk.mybatis.mapper.mapperhelper.MapperTemplate;
+import tk.mybatis.mapper.mapperhelper.SqlHelper;
+
+/**
+ * {@link AggregateMapper} 的 SQL 实现
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class AggregateProvider extends MapperTemplate {
+
+	public AggregateProvider(Class<?> mapperClass, MapperHelper mapperHelper) {
+		super(mapperClass, mapperHelper);
+	}
+
+	/**
+	 * 按条件计算聚合值
+	 *
+	 * @param ms MappedStatement
+	 * @return sql
+	 */
+	public String selectAggregateByCondition(MappedStatement ms) {
+		Class<?> entityClass = getEntityClass(ms);
+		return "SELECT ${aggregate} "
+				+ SqlHelper.fromTable(entityClass, tableName(entityClass))
+				+ SqlHelper.updateByExampleWhereClause();
+	}
+
+	/**
+	 * 按条件分组计数
+	 *
+	 * @param ms MappedStatement
+	 * @return sql
+	 */
+	public String selectCountGroupByCondition(MappedStatement ms) {
+		Class<?> entityClass = getEntityClass(ms);
+		return "SELECT ${column} AS group_key, COUNT(*) AS group_count "
+				+ SqlHelper.fromTable(entityClass, tableName(entityClass))
+				+ SqlHelper.updateByExampleWhereClause()
+				+ " GROUP BY ${column}";
+	}
+}
@@ -0,0 +1,141 @@
+package com.mingrn.itumate.core;
+
+import com.mingrn.itumate.exception.ServiceException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 基于信号量的并发隔离
+ * <p>同时执行的操作数不超过 {@code maxConcurrent}, 超出时最多排队等待 {@code queueTimeout},
+ * 超时仍未获得许可则抛出 {@link ServiceException} 快速失败。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class Bulkhead {
+
+	private final String name;
+
+	private final int maxConcurrent;
+
+	private final long queueTimeoutNanos;
+
+	private final Semaphore semaphore;
+
+	/**
+	 * 正在排队的操作数
+	 */
+	private final AtomicInteger queued = new AtomicInteger();
+
+	/**
+	 * 被拒绝的操作数
+	 */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * @param name          名称, 用于异常信息
+	 * @param maxConcurrent 最大并发数
+	 * @param queueTimeout  最长排队时间, 不大于 0 时不排队
+	 * @param unit          时间单位
+	 */
+	public Bulkhead(String name, int maxConcurrent, long queueTimeout, TimeUnit unit) {
+		if (maxConcurrent <= 0) {
+			throw new ServiceException("the max concurrent of bulkhead " + name + " must be greater than 0!");
+		}
+		this.name = name;
+		this.maxConcurrent = maxConcurrent;
+		this.queueTimeoutNanos = unit.toNanos(queueTimeout);
+		this.semaphore = new Semaphore(maxConcurrent, true);
+	}
+
+	/**
+	 * 获得许可后执行
+	 *
+	 * @param supplier 操作
+	 * @return 操作结果
+	 */
+	public <R> R execute(Supplier<R> supplier) {
+		if (!acquire()) {
+			rejected.incrementAndGet();
+			throw new ServiceException("the bulkhead " + name + " is full, max concurrent: " + maxConcurrent);
+		}
+		try {
+			return supplier.get();
+		} finally {
+			semaphore.release();
+		}
+	}
+
+	/**
+	 * 有空闲许可时立即执行, 否则不执行也不计入拒绝数, 用于可放弃的预读等操作
+	 *
+	 * @param supplier 操作
+	 * @return 操作结果, 未执行时为 null
+	 */
+	public <R> R tryExecute(Supplier<R> supplier) {
+		if (!semaphore.tryAcquire()) {
+			return null;
+		}
+		try {
+			return supplier.get();
+		} finally {
+			semaphore.release();
+		}
+	}
+
+	private boolean acquire() {
+		if (semaphore.tryAcquire()) {
+			return true;
+		}
+		if (queueTimeoutNanos <= 0) {
+			return false;
+		}
+		queued.incrementAndGet();
+		try {
+			return semaphore.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			queued.decrementAndGet();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	/**
+	 * @return 正在执行的操作数
+	 */
+	public int getActive() {
+		return maxConcurrent - semaphore.availablePermits();
+	}
+
+	/**
+	 * @return 正在排队的操作数
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * @return 被拒绝的操作数
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return name + "{maxConcurrent=" + maxConcurrent + ", active=" + getActive()
+				+ ", queued=" + getQueued() + ", rejected=" + getRejected() + "}";
+	}
+}
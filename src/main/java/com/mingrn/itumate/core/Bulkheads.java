@@ -0,0 +1,65 @@
+package com.mingrn.itumate.core;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 按操作分类的并发隔离
+ * <p>为每类操作单独限制并发, 防止深分页或全表查询等慢操作占满连接池, 影响主键查询。使用示例如下:
+ * <pre>{@code
+ *   userService.setBulkheads(new Bulkheads()
+ *           .limit(OperationType.PAGED_SCAN, 4, 200, TimeUnit.MILLISECONDS)
+ *           .limit(OperationType.FULL_SCAN, 2, 0, TimeUnit.MILLISECONDS));
+ * }</pre>
+ * 未配置的分类不限制并发。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class Bulkheads {
+
+	private final Map<OperationType, Bulkhead> bulkheads = new EnumMap<>(OperationType.class);
+
+	/**
+	 * 限制某类操作的并发
+	 *
+	 * @param type          操作分类
+	 * @param maxConcurrent 最大并发数
+	 * @param queueTimeout  最长排队时间, 不大于 0 时达到上限立即拒绝
+	 * @param unit          时间单位
+	 * @return this
+	 */
+	public Bulkheads limit(OperationType type, int maxConcurrent, long queueTimeout, TimeUnit unit) {
+		bulkheads.put(type, new Bulkhead(type.name(), maxConcurrent, queueTimeout, unit));
+		return this;
+	}
+
+	/**
+	 * 在对应分类的并发限制内执行
+	 *
+	 * @param type     操作分类
+	 * @param supplier 操作
+	 * @return 操作结果
+	 */
+	public <R> R execute(OperationType type, Supplier<R> supplier) {
+		Bulkhead bulkhead = bulkheads.get(type);
+		return bulkhead == null ? supplier.get() : bulkhead.execute(supplier);
+	}
+
+	/**
+	 * @param type 操作分类
+	 * @return 对应的并发隔离, 未配置时为 null
+	 */
+	public Bulkhead get(OperationType type) {
+		return bulkheads.get(type);
+	}
+
+	/**
+	 * @return 各分类的并发隔离, 包含排队数与拒绝数等统计
+	 */
+	public Map<OperationType, Bulkhead> getBulkheads() {
+		return Collections.unmodifiableMap(bulkheads);
+	}
+}
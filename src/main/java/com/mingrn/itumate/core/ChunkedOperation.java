@@ -0,0 +1,169 @@
+package com.mingrn.itumate.core;
+
+import com.mingrn.itumate.exception.ServiceException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分块批量操作
+ * <p>用于 {@link Service#remove(tk.mybatis.mapper.entity.Condition, ChunkedOperation)} 与
+ * {@link Service#update(Object, tk.mybatis.mapper.entity.Condition, ChunkedOperation)},
+ * 每次最多处理 {@code chunkSize} 条记录, 每块之间按 {@code throttle} 暂停。使用示例如下:
+ * <pre>{@code
+ *   ChunkedOperation operation = new ChunkedOperation(1000)
+ *           .throttle(200, TimeUnit.MILLISECONDS)
+ *           .listener((chunkRows, chunks, affectedRows) -> log.info("{} rows removed", affectedRows));
+ *
+ *   // 其他线程可调用 operation.cancel() 取消
+ *   long total = userService.remove(condition, operation);
+ * }</pre>
+ * 每一块都是独立的语句, 在事务中调用会抛出 {@link ServiceException}, 否则所有分块会合并为一个大事务。
+ * 每个实例只能执行一次, 进度统计均为本次执行的数据。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class ChunkedOperation {
+
+	/**
+	 * 每块最大记录数
+	 */
+	private final int chunkSize;
+
+	/**
+	 * 每块之间暂停的毫秒数
+	 */
+	private long throttleMillis;
+
+	private Listener listener;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * 是否已开始执行
+	 */
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	/**
+	 * 已完成的块数
+	 */
+	private final AtomicInteger chunks = new AtomicInteger();
+
+	/**
+	 * 累计影响的记录数
+	 */
+	private final AtomicLong affectedRows = new AtomicLong();
+
+	public ChunkedOperation(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new ServiceException("the chunk size must be greater than 0!");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * 设置每块之间的暂停时间
+	 *
+	 * @param throttle 暂停时间
+	 * @param unit     时间单位
+	 * @return this
+	 */
+	public ChunkedOperation throttle(long throttle, TimeUnit unit) {
+		this.throttleMillis = unit.toMillis(throttle);
+		return this;
+	}
+
+	/**
+	 * 设置进度监听
+	 *
+	 * @param listener 每完成一块回调一次
+	 * @return this
+	 */
+	public ChunkedOperation listener(Listener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * 取消操作, 当前块执行完后停止
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getChunks() {
+		return chunks.get();
+	}
+
+	public long getAffectedRows() {
+		return affectedRows.get();
+	}
+
+	/**
+	 * 标记开始执行, 不允许重复使用
+	 */
+	void start() {
+		if (!started.compareAndSet(false, true)) {
+			throw new ServiceException("the chunked operation can not be reused!");
+		}
+	}
+
+	/**
+	 * 记录一块的执行结果
+	 *
+	 * @param rows 当前块影响的记录数
+	 */
+	void completeChunk(int rows) {
+		int completed = chunks.incrementAndGet();
+		long total = affectedRows.addAndGet(rows);
+		if (listener != null) {
+			listener.onChunk(rows, completed, total);
+		}
+	}
+
+	/**
+	 * 块之间暂停, 线程被中断时视为取消
+	 *
+	 * @return 是否继续执行
+	 */
+	boolean pause() {
+		if (cancelled) {
+			return false;
+		}
+		if (throttleMillis > 0) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(throttleMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel();
+			}
+		}
+		return !cancelled;
+	}
+
+	/**
+	 * 进度监听
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * 每完成一块回调一次
+		 *
+		 * @param chunkRows    当前块影响的记录数
+		 * @param chunks       已完成的块数
+		 * @param affectedRows 累计影响的记录数
+		 */
+		void onChunk(int chunkRows, int chunks, long affectedRows);
+	}
+}
@@ -0,0 +1,62 @@
+package com.mingrn.itumate.core;
+
+import tk.mybatis.mapper.entity.Condition;
+import tk.mybatis.mapper.entity.Example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 查询条件的值对象
+ * <p>{@link Condition} 未实现 equals, 该类按实体、动态表名、查询条件及其 AND/OR 连接方式、排序、去重、
+ * 查询列及 FOR UPDATE 归一化后比较, 可作为 Map 的 key 使用。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+final class ConditionKey {
+
+	private final List<Object> parts = new ArrayList<>();
+
+	/**
+	 * @param condition 查询条件, 可为 null
+	 * @param extras    其他参与比较的参数, 如分页参数
+	 */
+	ConditionKey(Condition condition, Object... extras) {
+		if (condition != null) {
+			parts.add(condition.getEntityClass());
+			parts.add(condition.getDynamicTableName());
+			parts.add(condition.isDistinct());
+			parts.add(condition.getOrderByClause());
+			parts.add(condition.getSelectColumns());
+			parts.add(condition.isForUpdate());
+			for (Example.Criteria criteria : condition.getOredCriteria()) {
+				if (!criteria.isValid()) {
+					continue;
+				}
+				List<Object> criterions = new ArrayList<>();
+				criterions.add(criteria.getAndOr());
+				for (Example.Criterion criterion : criteria.getCriteria()) {
+					criterions.add(Arrays.asList(criterion.getAndOr(), criterion.getCondition(), criterion.getValue(), criterion.getSecondValue()));
+				}
+				parts.add(criterions);
+			}
+		}
+		parts.addAll(Arrays.asList(extras));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || (o instanceof ConditionKey && parts.equals(((ConditionKey) o).parts));
+	}
+
+	@Override
+	public int hashCode() {
+		return parts.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return parts.toString();
+	}
+}
@@ -0,0 +1,183 @@
+package com.mingrn.itumate.core;
+
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import tk.mybatis.mapper.mapperhelper.MapperHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 延迟生成通用 Mapper SQL 的 MapperHelper
+ * <p>tkMapper 默认在启动时为每个实体的每个通用方法生成动态 SQL, 实体较多时启动较慢。
+ * 该类在启动时只登记需要处理的 MappedStatement, 首次执行时才由 {@link LazySqlSourceInterceptor}
+ * 生成 SQL, 启动耗时只与实际用到的方法相关。配置示例如下:
+ * <pre>{@code
+ *   LazyMapperHelper mapperHelper = new LazyMapperHelper();
+ *   mapperHelper.setProperties(properties);
+ *   mapperScannerConfigurer.setMapperHelper(mapperHelper);
+ *
+ *   // 拦截器必须在 PageHelper 之后注册, 保证先于 PageHelper 执行
+ *   sqlSessionFactoryBean.setPlugins(new Interceptor[]{pageHelper, new LazySqlSourceInterceptor(mapperHelper)});
+ * }</pre>
+ * insert 方法生成 SQL 时会向 {@link Configuration} 注册 selectKey 及 KeyGenerator, 而 Configuration
+ * 在运行期被无锁读取, 因此 insert 方法始终在启动时生成, 只有查询、更新、删除方法延迟生成。
+ * 也可以通过属性 {@code lazy=false} 关闭延迟生成, 此时仍会统计每个 Mapper 的生成耗时。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class LazyMapperHelper extends MapperHelper {
+
+	/**
+	 * 是否延迟生成
+	 */
+	private volatile boolean lazy = true;
+
+	/**
+	 * 尚未生成 SQL 的 MappedStatement id
+	 */
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 以 Mapper 名称为 key 的生成耗时统计
+	 */
+	private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+	public boolean isLazy() {
+		return lazy;
+	}
+
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+		super.setProperties(properties);
+		if (properties != null && properties.getProperty("lazy") != null) {
+			setLazy(Boolean.parseBoolean(properties.getProperty("lazy")));
+		}
+	}
+
+	@Override
+	public void processConfiguration(Configuration configuration, Class<?> mapperInterface) {
+		String prefix = mapperInterface != null ? mapperInterface.getCanonicalName() : "";
+		for (Object object : new ArrayList<Object>(configuration.getMappedStatements())) {
+			if (!(object instanceof MappedStatement)) {
+				continue;
+			}
+			MappedStatement ms = (MappedStatement) object;
+			if (ms.getId().startsWith(prefix) && isMapperMethod(ms.getId()) && ms.getSqlSource() instanceof ProviderSqlSource) {
+				if (lazy && ms.getSqlCommandType() != SqlCommandType.INSERT) {
+					if (pending.add(ms.getId())) {
+						statistics(ms).pending.incrementAndGet();
+					}
+				} else {
+					build(ms);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 执行前为尚未生成 SQL 的 MappedStatement 生成 SQL
+	 *
+	 * @param ms MappedStatement
+	 */
+	public void prepare(MappedStatement ms) {
+		if (!pending.contains(ms.getId())) {
+			return;
+		}
+		// 延迟生成的只有替换 SqlSource 的方法, 加锁只为保证每个方法只生成一次
+		synchronized (this) {
+			if (pending.contains(ms.getId())) {
+				build(ms);
+				statistics(ms).pending.decrementAndGet();
+				pending.remove(ms.getId());
+			}
+		}
+	}
+
+	/**
+	 * 每个 Mapper 的 SQL 生成统计
+	 *
+	 * @return 以 Mapper 名称排序的统计
+	 */
+	public Map<String, Statistics> getStatistics() {
+		return Collections.unmodifiableMap(new TreeMap<>(statistics));
+	}
+
+	/**
+	 * 每个 Mapper 的 SQL 生成耗时报告
+	 *
+	 * @return report
+	 */
+	public String report() {
+		StringBuilder sb = new StringBuilder("mapper statements (lazy=").append(lazy).append(")");
+		long totalNanos = 0;
+		for (Map.Entry<String, Statistics> entry : getStatistics().entrySet()) {
+			Statistics value = entry.getValue();
+			totalNanos += value.getNanos();
+			sb.append(System.lineSeparator())
+					.append(entry.getKey())
+					.append(": built=").append(value.getBuilt())
+					.append(", pending=").append(value.getPending())
+					.append(", time=").append(TimeUnit.NANOSECONDS.toMillis(value.getNanos())).append("ms");
+		}
+		sb.append(System.lineSeparator()).append("total: ").append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append("ms");
+		return sb.toString();
+	}
+
+	private void build(MappedStatement ms) {
+		long start = System.nanoTime();
+		setSqlSource(ms);
+		Statistics value = statistics(ms);
+		value.nanos.addAndGet(System.nanoTime() - start);
+		value.built.incrementAndGet();
+	}
+
+	private Statistics statistics(MappedStatement ms) {
+		String id = ms.getId();
+		return statistics.computeIfAbsent(id.substring(0, id.lastIndexOf('.')), key -> new Statistics());
+	}
+
+	/**
+	 * 单个 Mapper 的 SQL 生成统计
+	 */
+	public static class Statistics {
+		private final AtomicInteger built = new AtomicInteger();
+		private final AtomicInteger pending = new AtomicInteger();
+		private final AtomicLong nanos = new AtomicLong();
+
+		/**
+		 * @return 已生成 SQL 的方法数
+		 */
+		public int getBuilt() {
+			return built.get();
+		}
+
+		/**
+		 * @return 尚未生成 SQL 的方法数
+		 */
+		public int getPending() {
+			return pending.get();
+		}
+
+		/**
+		 * @return 生成 SQL 累计耗时(纳秒)
+		 */
+		public long getNanos() {
+			return nanos.get();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.mingrn.itumate.core;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Properties;
+
+/**
+ * 首次执行时生成通用 Mapper SQL 的拦截器
+ * <p>配合 {@link LazyMapperHelper} 使用, 需在 PageHelper 之后注册, 使其先于 PageHelper 执行。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+@Intercepts({
+		@Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+		@Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+		@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class LazySqlSourceInterceptor implements Interceptor {
+
+	private final LazyMapperHelper mapperHelper;
+
+	public LazySqlSourceInterceptor(LazyMapperHelper mapperHelper) {
+		this.mapperHelper = mapperHelper;
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		mapperHelper.prepare((MappedStatement) invocation.getArgs()[0]);
+		return invocation.proceed();
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		return Plugin.wrap(target, this);
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+	}
+}
@@ -13,5 +13,5 @@ import tk.mybatis.mapper.common.special.InsertListMapper;
  * @author MinGRn <br > MinGRn97@gmail.com
  */
 public interface Mapper<T> extends BaseMapper<T>, ConditionMapper<T>,
-		IdsMapper<T>, InsertListMapper<T>, SelectCountMapper<T>, SelectCountByConditionMapper<T> {
+		IdsMapper<T>, InsertListMapper<T>, SelectCountMapper<T>, SelectCountByConditionMapper<T>, AggregateMapper<T> {
 }
\ No newline at end of file
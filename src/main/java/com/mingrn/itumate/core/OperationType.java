@@ -0,0 +1,35 @@
+package com.mingrn.itumate.core;
+
+/**
+ * Service 操作分类, 用于按类别限制并发
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ * @see Bulkheads
+ */
+public enum OperationType {
+
+	/**
+	 * 主键或唯一键查询, 如 get、findBy、findByIds
+	 */
+	POINT_LOOKUP,
+
+	/**
+	 * 分页查询
+	 */
+	PAGED_SCAN,
+
+	/**
+	 * 不分页的列表查询, 如 find()、find(T)、findByCondition(Condition)
+	 */
+	FULL_SCAN,
+
+	/**
+	 * 批量写, 如 batchInsert、按条件更新或删除、按主键列表删除
+	 */
+	BULK_WRITE,
+
+	/**
+	 * 统计
+	 */
+	COUNT
+}
@@ -0,0 +1,151 @@
+package com.mingrn.itumate.core;
+
+import com.github.pagehelper.PageInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询下一页预读
+ * <p>返回第 N 页后在后台异步查询第 N + 1 页, 结果按条件、排序、每页数量及页码保存在容量有限、
+ * 短时间过期的缓冲区中, 每个结果只会被取走一次。表有写操作时只丢弃该实体的预读结果,
+ * 写之前已开始的预读即使随后完成也不会被使用, 同一个实例可以由多个 Service 共享。
+ * 取结果时只等待已经开始执行的预读, 仍在排队的预读会被取消, 由调用方直接查询。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class PagePrefetcher {
+
+	private final Executor executor;
+
+	private final Cache<Object, Prefetch> buffer;
+
+	/**
+	 * 以实体类型为 key 的写操作版本, 每次写操作加一
+	 */
+	private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	/**
+	 * 默认 2 个后台线程, 最多缓存 64 页, 10 秒过期
+	 */
+	public PagePrefetcher() {
+		this(new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64),
+				new ThreadFactoryBuilder().setNameFormat("page-prefetcher-%d").setDaemon(true).build()), 64, 10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param executor    执行预读的线程池, 拒绝任务时放弃预读
+	 * @param maximumSize 最多缓存的页数
+	 * @param ttl         过期时间
+	 * @param unit        时间单位
+	 */
+	public PagePrefetcher(Executor executor, int maximumSize, long ttl, TimeUnit unit) {
+		this.executor = executor;
+		this.buffer = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl, unit).build();
+	}
+
+	/**
+	 * 取走预读结果, 预读正在执行时等待其完成, 仍在排队时取消预读
+	 *
+	 * @param entityClass 实体类型
+	 * @param key         查询 key
+	 * @return 预读结果, 没有可用结果时为 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> PageInfo<T> take(Class<?> entityClass, Object key) {
+		Prefetch prefetch = buffer.getIfPresent(key);
+		if (prefetch == null) {
+			return null;
+		}
+		buffer.invalidate(key);
+		AtomicLong generation = generation(entityClass);
+		if (prefetch.entityClass != entityClass || prefetch.generation != generation.get()
+				|| prefetch.state.compareAndSet(QUEUED, CANCELLED)) {
+			return null;
+		}
+		try {
+			PageInfo<T> page = (PageInfo<T>) prefetch.future.join();
+			return prefetch.generation == generation.get() ? page : null;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 异步预读
+	 *
+	 * @param entityClass 实体类型
+	 * @param key         查询 key
+	 * @param loader      查询, 返回 null 表示放弃预读
+	 */
+	public void prefetch(Class<?> entityClass, Object key, Supplier<PageInfo<?>> loader) {
+		if (buffer.getIfPresent(key) != null) {
+			return;
+		}
+		Prefetch prefetch = new Prefetch(entityClass, generation(entityClass).get());
+		try {
+			executor.execute(() -> {
+				if (!prefetch.state.compareAndSet(QUEUED, RUNNING)) {
+					return;
+				}
+				try {
+					PageInfo<?> page = loader.get();
+					if (page == null) {
+						buffer.asMap().remove(key, prefetch);
+					}
+					prefetch.future.complete(page);
+				} catch (RuntimeException | Error e) {
+					buffer.asMap().remove(key, prefetch);
+					prefetch.future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			return;
+		}
+		buffer.asMap().putIfAbsent(key, prefetch);
+	}
+
+	/**
+	 * 表有写操作时丢弃该实体的预读结果
+	 *
+	 * @param entityClass 实体类型
+	 */
+	public void invalidate(Class<?> entityClass) {
+		generation(entityClass).incrementAndGet();
+		buffer.asMap().values().removeIf(prefetch -> prefetch.entityClass == entityClass);
+	}
+
+	private AtomicLong generation(Class<?> entityClass) {
+		return generations.computeIfAbsent(entityClass, key -> new AtomicLong());
+	}
+
+	private static final int QUEUED = 0;
+
+	private static final int RUNNING = 1;
+
+	private static final int CANCELLED = 2;
+
+	private static class Prefetch {
+		private final Class<?> entityClass;
+		private final long generation;
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+		private final CompletableFuture<PageInfo<?>> future = new CompletableFuture<>();
+
+		Prefetch(Class<?> entityClass, long generation) {
+			this.entityClass = entityClass;
+			this.generation = generation;
+		}
+	}
+}
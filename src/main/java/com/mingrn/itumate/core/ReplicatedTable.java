@@ -0,0 +1,363 @@
+package com.mingrn.itumate.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mingrn.itumate.exception.ServiceException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 全表内存副本
+ * <p>适用于地区、币种、配置码等读多写少的字典表。首次读取时加载整表为不可变快照, 并按配置的成员变量建立索引,
+ * 之后按 {@code refreshEvery} 轮询水位列(如 updatedAt、version), 只加载水位之后变化的记录,
+ * 生成新快照后原子替换, 读操作无锁且不访问数据库。水位列无法发现删除, 每 {@code fullReloadEvery}
+ * 次轮询全量加载一次, 通过 Service 执行的写操作提交后会在写线程上同步全量加载一次。使用示例如下:
+ * <pre>{@code
+ *   public RegionServiceImpl() {
+ *       setReplicatedTable(new ReplicatedTable<Region>("updatedAt")
+ *               .index("code", "countryId")
+ *               .refreshEvery(30, TimeUnit.SECONDS));
+ *   }
+ * }</pre>
+ * 本类返回的实体由所有调用方共享, 不能修改; 通过 {@link AbstractService} 读取时返回副本。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class ReplicatedTable<T> {
+
+	/**
+	 * 水位成员变量, 为 null 时每次轮询都全量加载
+	 */
+	private final String watermarkProperty;
+
+	/**
+	 * 建立索引的成员变量
+	 */
+	private final Set<String> indexedProperties = new LinkedHashSet<>();
+
+	private long refreshMillis = TimeUnit.MINUTES.toMillis(1);
+
+	private int fullReloadEvery = 60;
+
+	private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+
+	private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+	private volatile ScheduledExecutorService scheduler;
+
+	private Source<T> source;
+
+	/**
+	 * 自上次全量加载后的轮询次数
+	 */
+	private int polls;
+
+	private volatile RuntimeException lastError;
+
+	/**
+	 * @param watermarkProperty 水位成员变量, 每次修改记录时递增, 为 null 时每次轮询都全量加载
+	 */
+	public ReplicatedTable(String watermarkProperty) {
+		this.watermarkProperty = watermarkProperty;
+	}
+
+	/**
+	 * 为成员变量建立索引, 用于 {@link #find(String, Object)} 与 {@link Service#findBy(String, Object)}
+	 *
+	 * @param properties 成员变量名称
+	 * @return this
+	 */
+	public ReplicatedTable<T> index(String... properties) {
+		indexedProperties.addAll(Arrays.asList(properties));
+		return this;
+	}
+
+	/**
+	 * 轮询间隔, 默认 1 分钟
+	 *
+	 * @param interval 间隔
+	 * @param unit     时间单位
+	 * @return this
+	 */
+	public ReplicatedTable<T> refreshEvery(long interval, TimeUnit unit) {
+		this.refreshMillis = unit.toMillis(interval);
+		return this;
+	}
+
+	/**
+	 * 每隔多少次轮询全量加载一次, 默认 60
+	 *
+	 * @param polls 轮询次数
+	 * @return this
+	 */
+	public ReplicatedTable<T> fullReloadEvery(int polls) {
+		this.fullReloadEvery = polls;
+		return this;
+	}
+
+	/**
+	 * 整表
+	 *
+	 * @return 不可变列表
+	 */
+	public List<T> findAll() {
+		return current().rows;
+	}
+
+	/**
+	 * 按主键查询
+	 *
+	 * @param id 主键
+	 * @return 不存在时为 null
+	 */
+	public T get(Object id) {
+		return id == null ? null : current().byId.get(id);
+	}
+
+	/**
+	 * 按已建立索引的成员变量查询
+	 *
+	 * @param property 成员变量名称
+	 * @param value    值
+	 * @return 不可变列表
+	 */
+	public List<T> find(String property, Object value) {
+		ImmutableListMultimap<Object, T> index = current().indexes.get(property);
+		if (index == null) {
+			throw new ServiceException("the property " + property + " is not indexed!");
+		}
+		return value == null ? Collections.emptyList() : index.get(value);
+	}
+
+	public boolean isIndexed(String property) {
+		return indexedProperties.contains(property);
+	}
+
+	public int size() {
+		return current().rows.size();
+	}
+
+	/**
+	 * @return 当前快照的水位
+	 */
+	public Object getWatermark() {
+		return current().watermark;
+	}
+
+	/**
+	 * @return 最近一次刷新失败的异常, 刷新失败时继续使用旧快照
+	 */
+	public RuntimeException getLastError() {
+		return lastError;
+	}
+
+	/**
+	 * 停止轮询
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * 请求尽快全量加载一次
+	 */
+	public void requestReload() {
+		ScheduledExecutorService executor = scheduler;
+		if (executor != null && reloadRequested.compareAndSet(false, true)) {
+			executor.execute(this::poll);
+		}
+	}
+
+	/**
+	 * 写操作提交后同步全量加载, 保证写线程随后的读取能看到本次写入; 尚未加载过时不处理。
+	 * 加载失败时继续使用旧快照, 由下一次轮询全量加载。
+	 */
+	public void reloadAfterWrite() {
+		if (snapshot.get() == null) {
+			return;
+		}
+		try {
+			reload();
+			lastError = null;
+		} catch (RuntimeException e) {
+			lastError = e;
+			reloadRequested.set(true);
+		}
+	}
+
+	/**
+	 * 全量加载
+	 */
+	public synchronized void reload() {
+		polls = 0;
+		snapshot.set(build(source.loadAll(), null));
+	}
+
+	/**
+	 * 加载水位之后变化的记录, 与当前快照合并
+	 */
+	public synchronized void refresh() {
+		Snapshot<T> current = snapshot.get();
+		if (current == null || watermarkProperty == null || current.watermark == null) {
+			reload();
+			return;
+		}
+		// 水位相同的记录可能在上次加载后才提交, 因此包含等于水位的记录
+		// 等于水位的记录每次都会返回, 只有内容与快照不同的记录才算变化, 没有变化时不重建快照
+		Map<Object, T> changed = new LinkedHashMap<>();
+		for (T row : source.loadSince(watermarkProperty, current.watermark)) {
+			Object id = source.read(row, source.pkProperty());
+			T existing = current.byId.get(id);
+			if (existing == null || !source.sameRow(existing, row)) {
+				changed.put(id, row);
+			}
+		}
+		if (changed.isEmpty()) {
+			return;
+		}
+		Map<Object, T> rows = new LinkedHashMap<>(current.byId);
+		rows.putAll(changed);
+		snapshot.set(build(rows.values(), current.watermark));
+	}
+
+	/**
+	 * 由 {@link AbstractService} 绑定数据来源
+	 */
+	synchronized void bind(Source<T> source) {
+		stop();
+		this.source = source;
+		snapshot.set(null);
+	}
+
+	/**
+	 * 当前快照, 首次调用时全量加载并开始轮询
+	 */
+	private Snapshot<T> current() {
+		Snapshot<T> current = snapshot.get();
+		return current != null ? current : start();
+	}
+
+	private synchronized Snapshot<T> start() {
+		if (snapshot.get() == null) {
+			if (source == null) {
+				throw new ServiceException("the replicated table is not bound to a service!");
+			}
+			reload();
+			scheduler = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactoryBuilder().setNameFormat("replicated-table-%d").setDaemon(true).build());
+			scheduler.scheduleWithFixedDelay(this::poll, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+		}
+		return snapshot.get();
+	}
+
+	private synchronized void poll() {
+		try {
+			if (reloadRequested.getAndSet(false) || (fullReloadEvery > 0 && ++polls >= fullReloadEvery)) {
+				reload();
+			} else {
+				refresh();
+			}
+			lastError = null;
+		} catch (RuntimeException e) {
+			lastError = e;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Snapshot<T> build(Collection<T> rows, Object previousWatermark) {
+		ImmutableMap.Builder<Object, T> byId = ImmutableMap.builder();
+		Map<String, ImmutableListMultimap.Builder<Object, T>> indexBuilders = new LinkedHashMap<>();
+		indexedProperties.forEach(property -> indexBuilders.put(property, ImmutableListMultimap.builder()));
+		Object watermark = previousWatermark;
+		for (T row : rows) {
+			byId.put(source.read(row, source.pkProperty()), row);
+			for (Map.Entry<String, ImmutableListMultimap.Builder<Object, T>> entry : indexBuilders.entrySet()) {
+				Object value = source.read(row, entry.getKey());
+				if (value != null) {
+					entry.getValue().put(value, row);
+				}
+			}
+			if (watermarkProperty != null) {
+				Object value = source.read(row, watermarkProperty);
+				if (value != null && (watermark == null || ((Comparable<Object>) value).compareTo(watermark) > 0)) {
+					watermark = value;
+				}
+			}
+		}
+		ImmutableMap.Builder<String, ImmutableListMultimap<Object, T>> indexes = ImmutableMap.builder();
+		indexBuilders.forEach((property, builder) -> indexes.put(property, builder.build()));
+		return new Snapshot<>(ImmutableList.copyOf(rows), byId.build(), indexes.build(), watermark);
+	}
+
+	/**
+	 * 不可变快照
+	 */
+	private static class Snapshot<T> {
+		private final ImmutableList<T> rows;
+		private final ImmutableMap<Object, T> byId;
+		private final ImmutableMap<String, ImmutableListMultimap<Object, T>> indexes;
+		private final Object watermark;
+
+		Snapshot(ImmutableList<T> rows, ImmutableMap<Object, T> byId,
+				 ImmutableMap<String, ImmutableListMultimap<Object, T>> indexes, Object watermark) {
+			this.rows = rows;
+			this.byId = byId;
+			this.indexes = indexes;
+			this.watermark = watermark;
+		}
+	}
+
+	/**
+	 * 数据来源
+	 */
+	interface Source<T> {
+
+		/**
+		 * @return 整表
+		 */
+		List<T> loadAll();
+
+		/**
+		 * @param watermarkProperty 水位成员变量
+		 * @param watermark         水位
+		 * @return 水位大于等于 watermark 的记录
+		 */
+		List<T> loadSince(String watermarkProperty, Object watermark);
+
+		/**
+		 * @return 主键成员变量名称
+		 */
+		String pkProperty();
+
+		/**
+		 * @param model    实体
+		 * @param property 成员变量名称
+		 * @return 成员变量的值
+		 */
+		Object read(T model, String property);
+
+		/**
+		 * @param a 实体
+		 * @param b 实体
+		 * @return 所有列的值是否相同
+		 */
+		boolean sameRow(T a, T b);
+	}
+}
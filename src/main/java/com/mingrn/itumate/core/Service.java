@@ -5,7 +5,9 @@ import org.apache.ibatis.exceptions.TooManyResultsException;
 import tk.mybatis.mapper.entity.Condition;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service 层 基础接口,其他Service 接口 请继承该接口
@@ -161,6 +163,69 @@ public interface Service<T, DTO extends T, PK extends Serializable> {
 	int count(Condition condition);
 
 
+	/**
+	 * 是否存在满足条件的记录,只查询一条
+	 *
+	 * @param condition
+	 * @return
+	 */
+	boolean exists(Condition condition);
+
+	/**
+	 * 按排序查询满足条件的第一条记录
+	 *
+	 * @param condition
+	 * @param orderBy
+	 * @return 没有记录时返回 null
+	 */
+	T findFirst(Condition condition, OrderBy orderBy);
+
+	/**
+	 * 按条件求和,column 为成员变量名称
+	 *
+	 * @param column
+	 * @param condition
+	 * @return 没有记录时返回 null
+	 */
+	BigDecimal sum(String column, Condition condition);
+
+	/**
+	 * 按条件求最小值,column 为成员变量名称
+	 *
+	 * @param column
+	 * @param condition
+	 * @return 没有记录时返回 null
+	 */
+	<V> V min(String column, Condition condition);
+
+	/**
+	 * 按条件求最大值,column 为成员变量名称
+	 *
+	 * @param column
+	 * @param condition
+	 * @return 没有记录时返回 null
+	 */
+	<V> V max(String column, Condition condition);
+
+	/**
+	 * 按条件求平均值,column 为成员变量名称
+	 *
+	 * @param column
+	 * @param condition
+	 * @return 没有记录时返回 null
+	 */
+	BigDecimal avg(String column, Condition condition);
+
+	/**
+	 * 按条件分组计数,column 为成员变量名称
+	 *
+	 * @param column
+	 * @param condition
+	 * @return 以分组值为 key 的记录数
+	 */
+	Map<Object, Long> countGroupBy(String column, Condition condition);
+
+
 	/**
 	 * 更新
 	 *
@@ -185,6 +250,16 @@ public interface Service<T, DTO extends T, PK extends Serializable> {
 	 */
 	void update(T model, Condition condition);
 
+	/**
+	 * 根据条件分块更新,每块按主键范围最多更新 chunkSize 条记录
+	 *
+	 * @param model
+	 * @param condition
+	 * @param operation
+	 * @return 累计更新的记录数
+	 */
+	long update(T model, Condition condition, ChunkedOperation operation);
+
 
 	/**
 	 * 通过主鍵刪除
@@ -207,6 +282,15 @@ public interface Service<T, DTO extends T, PK extends Serializable> {
 	 */
 	void remove(Condition condition);
 
+	/**
+	 * 通过条件分块刪除,每块按主键范围最多刪除 chunkSize 条记录
+	 *
+	 * @param condition
+	 * @param operation
+	 * @return 累计刪除的记录数
+	 */
+	long remove(Condition condition, ChunkedOperation operation);
+
 	/**
 	 * 批量删除
 	 *
@@ -0,0 +1,101 @@
+package com.mingrn.itumate.core;
+
+import com.mingrn.itumate.exception.ServiceException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 相同查询合并执行
+ * <p>同一时刻 key 相同的多个调用只有第一个会真正执行查询, 其余调用等待并共享其结果,
+ * 查询结束后立即从进行中的表移除, 不做任何缓存。等待的调用方通过 {@code copier} 拿到结果的副本,
+ * 未指定 copier 时结果对象由所有调用方共享, 调用方不应修改。
+ * key 由调用方保证全局唯一, 可以在多个 Service 之间共享同一个实例。
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class SingleFlight {
+
+	/**
+	 * 进行中的查询
+	 */
+	private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * 共享他人结果的调用次数
+	 */
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * 执行查询, 已有相同 key 的查询在执行时等待其结果
+	 *
+	 * @param key      查询 key
+	 * @param supplier 查询
+	 * @return 查询结果
+	 */
+	public <R> R execute(Object key, Supplier<R> supplier) {
+		return execute(key, supplier, UnaryOperator.identity());
+	}
+
+	/**
+	 * 执行查询, 已有相同 key 的查询在执行时等待其结果并返回副本
+	 *
+	 * @param key      查询 key
+	 * @param supplier 查询
+	 * @param copier   为等待的调用方复制结果, 执行查询的调用方拿到原结果
+	 * @return 查询结果
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R execute(Object key, Supplier<R> supplier, UnaryOperator<R> copier) {
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+		if (existing != null) {
+			coalesced.incrementAndGet();
+			return copier.apply((R) await(existing));
+		}
+		try {
+			R result = supplier.get();
+			future.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	/**
+	 * @return 当前进行中的查询数
+	 */
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	/**
+	 * @return 共享他人结果的调用次数
+	 */
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	private static Object await(CompletableFuture<Object> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new ServiceException(cause);
+		}
+	}
+}
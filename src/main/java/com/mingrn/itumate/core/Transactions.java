@@ -0,0 +1,40 @@
+package com.mingrn.itumate.core;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Spring 事务状态工具类
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+final class Transactions {
+
+	private Transactions() {
+	}
+
+	/**
+	 * @return 当前线程是否处于实际开启的事务中
+	 */
+	static boolean isActive() {
+		return TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	/**
+	 * 当前事务提交后执行, 不在事务中时立即执行
+	 *
+	 * @param action 操作
+	 */
+	static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
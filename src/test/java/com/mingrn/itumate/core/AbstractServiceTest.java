@@ -0,0 +1,180 @@
+package com.mingrn.itumate.core;
+
+import com.github.pagehelper.PageHelper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import tk.mybatis.mapper.entity.Condition;
+import tk.mybatis.mapper.mapperhelper.MapperHelper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 基于内嵌 H2 的 {@link AbstractService} 测试
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class AbstractServiceTest {
+
+	private static final int ROWS = 100;
+
+	private static PooledDataSource dataSource;
+
+	private static Mapper<TestEntity> mapper;
+
+	private TestEntityService service;
+
+	@BeforeClass
+	public static void setUpClass() {
+		dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:abstract-service-test;DB_CLOSE_DELAY=-1", "sa", "");
+
+		Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+		Properties properties = new Properties();
+		properties.setProperty("dialect", "h2");
+		PageHelper pageHelper = new PageHelper();
+		pageHelper.setProperties(properties);
+		configuration.addInterceptor(pageHelper);
+		configuration.addMapper(TestEntityMapper.class);
+
+		MapperHelper mapperHelper = new MapperHelper();
+		mapperHelper.registerMapper(Mapper.class);
+		mapperHelper.processConfiguration(configuration);
+
+		SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+		mapper = SqlSessionManager.newInstance(sqlSessionFactory).getMapper(TestEntityMapper.class);
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		dataSource.forceCloseAll();
+	}
+
+	/**
+	 * 重建数据表, amount 依次为 1 到 {@value #ROWS}, status 为 amount 除以 5 的余数
+	 */
+	@Before
+	public void setUp() throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS test_entity");
+			statement.execute(TestEntity.DDL);
+		}
+		service = new TestEntityService(mapper);
+		for (int i = 1; i <= ROWS; i++) {
+			TestEntity entity = new TestEntity();
+			entity.setName("n" + (i % 3));
+			entity.setAmount(i);
+			entity.setStatus(i % 5);
+			service.insert(entity);
+		}
+	}
+
+	@Test
+	public void chunkedRemoveKeepsAndGroups() {
+		int removed = (int) service.remove(betweenTenAndTwenty(), new ChunkedOperation(4));
+
+		assertEquals(9, removed);
+		assertEquals(ROWS - 9, service.count());
+		assertEquals(0, service.count(betweenTenAndTwenty()));
+	}
+
+	@Test
+	public void chunkedUpdateKeepsAndGroups() {
+		TestEntity model = new TestEntity();
+		model.setRemark("updated");
+		int updated = (int) service.update(model, betweenTenAndTwenty(), new ChunkedOperation(4));
+
+		Condition condition = new Condition(TestEntity.class);
+		condition.createCriteria().andEqualTo("remark", "updated");
+		assertEquals(9, updated);
+		assertEquals(9, service.count(condition));
+		assertEquals(9, service.count(betweenTenAndTwenty()));
+	}
+
+	@Test
+	public void dirtyUpdateKeepsUnchangedPrimitives() {
+		service.setDirtyTracking(true);
+		TestEntity entity = service.get(1L);
+		entity.setName("changed");
+
+		assertEquals(1, service.update(entity));
+		TestEntity reloaded = mapper.selectByPrimaryKey(1L);
+		assertEquals("changed", reloaded.getName());
+		assertEquals(Integer.valueOf(1), reloaded.getAmount());
+		assertEquals(1, reloaded.getStatus());
+	}
+
+	@Test
+	public void existsAndFindFirstKeepAndGroups() {
+		Condition condition = new Condition(TestEntity.class);
+		condition.createCriteria().andGreaterThan("amount", 50);
+		condition.and().andLessThan("amount", 10);
+
+		assertEquals(0, service.count(condition));
+		assertFalse(service.exists(condition));
+		assertNull(service.findFirst(condition, null));
+
+		assertTrue(service.exists(betweenTenAndTwenty()));
+		assertEquals(Integer.valueOf(11), service.findFirst(betweenTenAndTwenty(), new OrderBy().add("amount")).getAmount());
+	}
+
+	@Test
+	public void prefetchedPageKeepsAndGroups() {
+		// 同步执行预读, 保证第 2 页取自预读结果
+		service.setPrefetcher(new PagePrefetcher(Runnable::run, 64, 10, TimeUnit.SECONDS));
+		OrderBy orderBy = new OrderBy().add("amount");
+		service.findByCondition(betweenTenAndTwenty(), orderBy, 3, 1);
+
+		List<TestEntity> page = service.findByCondition(betweenTenAndTwenty(), orderBy, 3, 2).getList();
+		assertEquals(Arrays.asList(14, 15, 16), page.stream().map(TestEntity::getAmount).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void replicaSeesOwnWrites() {
+		ReplicatedTable<TestEntity> replica = new ReplicatedTable<TestEntity>(null).index("name");
+		service.setReplicatedTable(replica);
+		try {
+			assertEquals(ROWS, service.count());
+
+			TestEntity entity = new TestEntity();
+			entity.setName("inserted");
+			entity.setAmount(0);
+			service.insert(entity);
+
+			assertEquals(ROWS + 1, service.count());
+			assertEquals(Integer.valueOf(0), service.get(entity.getId()).getAmount());
+			assertEquals(entity.getId(), service.findBy("name", "inserted").getId());
+		} finally {
+			replica.stop();
+		}
+	}
+
+	/**
+	 * amount &gt; 10 AND amount &lt; 20, 两组条件以 {@code and()} 连接, 共 9 条记录
+	 */
+	private static Condition betweenTenAndTwenty() {
+		Condition condition = new Condition(TestEntity.class);
+		condition.createCriteria().andGreaterThan("amount", 10);
+		condition.and().andLessThan("amount", 20);
+		return condition;
+	}
+}
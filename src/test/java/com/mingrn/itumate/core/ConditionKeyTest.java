@@ -0,0 +1,59 @@
+package com.mingrn.itumate.core;
+
+import org.junit.Test;
+import tk.mybatis.mapper.entity.Condition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * {@link ConditionKey} 测试
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class ConditionKeyTest {
+
+	@Test
+	public void sameConditionsAreEqual() {
+		Condition a = new Condition(TestEntity.class);
+		a.createCriteria().andEqualTo("name", "n0").andEqualTo("amount", 3);
+		Condition b = new Condition(TestEntity.class);
+		b.createCriteria().andEqualTo("name", "n0").andEqualTo("amount", 3);
+
+		assertEquals(new ConditionKey(a), new ConditionKey(b));
+		assertEquals(new ConditionKey(a).hashCode(), new ConditionKey(b).hashCode());
+	}
+
+	@Test
+	public void criterionAndOrIsPartOfTheKey() {
+		Condition and = new Condition(TestEntity.class);
+		and.createCriteria().andEqualTo("name", "n0").andEqualTo("amount", 3);
+		Condition or = new Condition(TestEntity.class);
+		or.createCriteria().andEqualTo("name", "n0").orEqualTo("amount", 3);
+
+		assertNotEquals(new ConditionKey(and), new ConditionKey(or));
+	}
+
+	@Test
+	public void criteriaAndOrIsPartOfTheKey() {
+		Condition and = new Condition(TestEntity.class);
+		and.createCriteria().andGreaterThan("amount", 10);
+		and.and().andLessThan("amount", 20);
+		Condition or = new Condition(TestEntity.class);
+		or.createCriteria().andGreaterThan("amount", 10);
+		or.or().andLessThan("amount", 20);
+
+		assertNotEquals(new ConditionKey(and), new ConditionKey(or));
+	}
+
+	@Test
+	public void dynamicTableNameIsPartOfTheKey() {
+		Condition a = new Condition(TestEntity.class);
+		a.createCriteria().andEqualTo("amount", 3);
+		Condition b = new Condition(TestEntity.class);
+		b.setTableName("test_entity_2019");
+		b.createCriteria().andEqualTo("amount", 3);
+
+		assertNotEquals(new ConditionKey(a), new ConditionKey(b));
+	}
+}
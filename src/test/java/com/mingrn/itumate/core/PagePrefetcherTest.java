@@ -0,0 +1,39 @@
+package com.mingrn.itumate.core;
+
+import com.github.pagehelper.PageInfo;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link PagePrefetcher} 测试
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class PagePrefetcherTest {
+
+	private final PagePrefetcher prefetcher = new PagePrefetcher(Runnable::run, 64, 10, TimeUnit.SECONDS);
+
+	@Test
+	public void invalidateDropsOnlyThatEntity() {
+		prefetcher.prefetch(TestEntity.class, "page", () -> new PageInfo<>(Collections.emptyList()));
+		prefetcher.prefetch(String.class, "other", () -> new PageInfo<>(Collections.emptyList()));
+
+		prefetcher.invalidate(String.class);
+
+		assertNotNull(prefetcher.take(TestEntity.class, "page"));
+		assertNull(prefetcher.take(String.class, "other"));
+	}
+
+	@Test
+	public void pageIsTakenOnlyOnce() {
+		prefetcher.prefetch(TestEntity.class, "page", () -> new PageInfo<>(Collections.emptyList()));
+
+		assertNotNull(prefetcher.take(TestEntity.class, "page"));
+		assertNull(prefetcher.take(TestEntity.class, "page"));
+	}
+}
@@ -0,0 +1,73 @@
+package com.mingrn.itumate.core;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 测试实体
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+@Table(name = "test_entity")
+public class TestEntity {
+
+	static final String DDL = "CREATE TABLE test_entity ("
+			+ "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+			+ "name VARCHAR(64) NOT NULL, "
+			+ "amount INT NOT NULL, "
+			+ "remark VARCHAR(255), "
+			+ "status INT NOT NULL)";
+
+	@Id
+	@GeneratedValue(generator = "JDBC")
+	private Long id;
+
+	private String name;
+
+	private Integer amount;
+
+	private String remark;
+
+	private int status = 7;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getAmount() {
+		return amount;
+	}
+
+	public void setAmount(Integer amount) {
+		this.amount = amount;
+	}
+
+	public String getRemark() {
+		return remark;
+	}
+
+	public void setRemark(String remark) {
+		this.remark = remark;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+}
@@ -0,0 +1,9 @@
+package com.mingrn.itumate.core;
+
+/**
+ * 测试实体 Mapper
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public interface TestEntityMapper extends Mapper<TestEntity> {
+}
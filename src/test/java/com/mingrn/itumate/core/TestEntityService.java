@@ -0,0 +1,13 @@
+package com.mingrn.itumate.core;
+
+/**
+ * 测试 Service, 不依赖 Spring 容器直接注入 Mapper
+ *
+ * @author MinGRn <br > MinGRn97@gmail.com
+ */
+public class TestEntityService extends AbstractService<TestEntity, TestEntity, Long> {
+
+	public TestEntityService(Mapper<TestEntity> mapper) {
+		this.mapper = mapper;
+	}
+}